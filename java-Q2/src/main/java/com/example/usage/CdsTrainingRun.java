@@ -0,0 +1,16 @@
+package com.example.usage;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Entry point for the AppCDS training run of the {@code fast-startup} Maven profile: starts the
+ * application once so its classes get loaded, then shuts down so the JVM can write the archive.
+ * Spring Boot 2.7 has no {@code spring.context.exit}, hence this separate main class.
+ */
+public class CdsTrainingRun {
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class, args);
+        System.exit(SpringApplication.exit(context));
+    }
+}
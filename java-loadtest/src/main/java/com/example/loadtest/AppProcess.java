@@ -0,0 +1,66 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Spring Boot jar started as a child JVM for the duration of a run. Output goes to a log file in the report directory.
+ */
+class AppProcess implements AutoCloseable {
+    private final String name;
+    private final Process process;
+
+    private AppProcess(String name, Process process) {
+        this.name = name;
+        this.process = process;
+    }
+
+    static AppProcess start(String name, Path jar, int port, List<String> args, Path logDir) throws IOException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(jar + " not found; package the " + name + " app first (mvn -B verify -Ploadtest from the repository root)");
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(args);
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logDir.resolve(name + ".log").toFile())
+                .start();
+        return new AppProcess(name, process);
+    }
+
+    /** Polls the probe until it answers with a 2xx status. */
+    void awaitReady(HttpClient client, HttpRequest probe, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) throw new IllegalStateException(name + " exited with status " + process.exitValue());
+            try {
+                int status = client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status / 100 == 2) return;
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException(name + " did not become ready within " + timeout);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(20, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts the library and usage apps on in-memory H2 (unless URLs of running instances are given), loads synthetic
+ * data into the library app, runs a warm-up and a measured open-model phase, and reports latency percentiles.
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        Files.createDirectories(config.reportDir);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 2));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+
+        List<AppProcess> started = new ArrayList<>();
+        try {
+            String libraryUrl = config.libraryUrl;
+            if (libraryUrl == null) {
+                libraryUrl = "http://localhost:" + config.libraryPort;
+                AppProcess library = AppProcess.start("library", config.libraryJar, config.libraryPort,
+                        List.of("--library.seed.enabled=false", "--spring.h2.console.enabled=false"), config.reportDir);
+                started.add(library);
+                library.awaitReady(client, HttpRequest.newBuilder(URI.create(libraryUrl + "/api/books")).build(), Duration.ofMinutes(2));
+            }
+
+            String usageUrl = config.usageUrl;
+            if (usageUrl == null && config.mix.containsKey(Operation.CONVERT)) {
+                usageUrl = "http://localhost:" + config.usagePort;
+                AppProcess usage = AppProcess.start("usage", config.usageJar, config.usagePort, List.of(
+                        // usage columns month, value and year are keywords in H2 2.x
+                        "--spring.datasource.url=jdbc:h2:mem:usage;DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH,VALUE,YEAR",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false"), config.reportDir);
+                started.add(usage);
+                usage.awaitReady(client, HttpRequest.newBuilder(URI.create(usageUrl + "/api/convert"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                        .build(), Duration.ofMinutes(2));
+            }
+
+            System.out.printf("Loading %d books, %d users and %d history rows into %s%n", config.books, config.users, config.history, libraryUrl);
+            SyntheticData data = new SyntheticData(client, config);
+            data.load(libraryUrl);
+
+            OpenLoadGenerator generator = new OpenLoadGenerator(client, config, data, libraryUrl, usageUrl);
+            System.out.printf("Warming up for %s at %.0f req/s%n", config.warmup, config.rate);
+            generator.run(config.warmup, config.seed + 1);
+            System.out.printf("Measuring for %s at %.0f req/s, mix %s%n", config.duration, config.rate, config.mix);
+            new Report(config).write(generator.run(config.duration, config.seed + 2));
+        } finally {
+            for (AppProcess app : started) {
+                app.close();
+            }
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Harness settings, read from {@code loadtest.*} system properties so they can be passed on the Maven command line.
+ */
+public class LoadTestConfig {
+    final Path baseDir = Path.of(System.getProperty("loadtest.basedir", "."));
+
+    // synthetic data sizes
+    final int users = intProperty("loadtest.users", 1_000);
+    final int books = intProperty("loadtest.books", 2_000);
+    final int history = intProperty("loadtest.history", 20_000);
+    final int loadConcurrency = intProperty("loadtest.load-concurrency", 32);
+    final long seed = Long.getLong("loadtest.seed", 42L);
+    // keeps ISBNs and emails unique when the same seed is loaded into an already running app again
+    final String runId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    // open-model workload
+    final double rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+    final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT15S"));
+    final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+    final Map<Operation, Integer> mix = parseMix(System.getProperty("loadtest.mix", "books=30,recommendations=40,mark-read=20,convert=10"));
+    final int maxOutstanding = intProperty("loadtest.max-outstanding", 10_000);
+    final Duration requestTimeout = Duration.parse(System.getProperty("loadtest.request-timeout", "PT30S"));
+
+    // targets: when a url is given the app is expected to be running already
+    final String libraryUrl = System.getProperty("loadtest.library.url");
+    final String usageUrl = System.getProperty("loadtest.usage.url");
+    final Path libraryJar = baseDir.resolve(System.getProperty("loadtest.library.jar", "../java/target/library-management-system-0.1.0.jar"));
+    final Path usageJar = baseDir.resolve(System.getProperty("loadtest.usage.jar", "../java-Q2/target/loadtest/usage-0.0.1-SNAPSHOT.jar"));
+    final int libraryPort = intProperty("loadtest.library.port", 18080);
+    final int usagePort = intProperty("loadtest.usage.port", 18081);
+
+    // reporting
+    final Path reportDir = baseDir.resolve(System.getProperty("loadtest.report-dir", "target/loadtest"));
+    final Path baseline = System.getProperty("loadtest.baseline") == null ? null : Path.of(System.getProperty("loadtest.baseline"));
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, Integer.toString(defaultValue)));
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Bad loadtest.mix entry: " + part);
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) weights.put(Operation.fromKey(kv[0].trim()), weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("loadtest.mix has no positive weights");
+        return weights;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive as a Poisson process at a fixed mean rate regardless of how fast the server
+ * answers. Latency is measured from each request's intended start time, so queueing behind a slow response is
+ * counted instead of hidden (no coordinated omission). Only 2xx responses are recorded in the latency histograms, so
+ * fast failures cannot make a run look faster; failed, timed-out and dropped requests are counted separately.
+ */
+class OpenLoadGenerator {
+    private final HttpClient client;
+    private final LoadTestConfig config;
+    private final SyntheticData data;
+    private final String libraryUrl;
+    private final String usageUrl;
+    private final Operation[] schedule;
+
+    OpenLoadGenerator(HttpClient client, LoadTestConfig config, SyntheticData data, String libraryUrl, String usageUrl) {
+        this.client = client;
+        this.config = config;
+        this.data = data;
+        this.libraryUrl = libraryUrl;
+        this.usageUrl = usageUrl;
+        // one slot per unit of weight; picking a random slot gives the configured mix
+        this.schedule = config.mix.entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Operation[]::new);
+    }
+
+    static class Result {
+        /** Latencies of successful (2xx) requests, in microseconds. */
+        final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        /** Requests scheduled, whatever became of them. */
+        final Map<Operation, AtomicLong> offered = new EnumMap<>(Operation.class);
+        /** Non-2xx responses, I/O failures, timeouts and dropped requests. */
+        final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+        final AtomicLong timedOut = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+        double elapsedSeconds;
+
+        Result(Iterable<Operation> operations) {
+            for (Operation op : operations) {
+                latencies.put(op, new ConcurrentHistogram(3));
+                offered.put(op, new AtomicLong());
+                errors.put(op, new AtomicLong());
+            }
+        }
+    }
+
+    Result run(Duration duration, long seed) throws InterruptedException {
+        Result result = new Result(config.mix.keySet());
+        Random random = new Random(seed);
+        Semaphore outstanding = new Semaphore(config.maxOutstanding);
+        double meanIntervalNanos = 1e9 / config.rate;
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intended = start;
+        while (true) {
+            // exponential inter-arrival times give a Poisson arrival process
+            intended += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+            if (intended >= end) break;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            Operation op = schedule[random.nextInt(schedule.length)];
+            HttpRequest request = request(op, random);
+            result.offered.get(op).incrementAndGet();
+            if (!outstanding.tryAcquire()) {
+                // the server is so far behind that the client would run out of memory; count it as a failure
+                result.dropped.incrementAndGet();
+                result.errors.get(op).incrementAndGet();
+                continue;
+            }
+            long intendedStart = intended;
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long micros = (System.nanoTime() - intendedStart) / 1_000;
+                if (error == null && response.statusCode() / 100 == 2) {
+                    result.latencies.get(op).recordValue(micros);
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof HttpTimeoutException) result.timedOut.incrementAndGet();
+                    result.errors.get(op).incrementAndGet();
+                }
+                outstanding.release();
+            });
+        }
+        // throughput is over the arrival window; the drain below only waits for latencies to be recorded
+        result.elapsedSeconds = duration.toNanos() / 1e9;
+        // every request times out eventually, so in-flight ones finish within one timeout (plus slack)
+        long drainMillis = config.requestTimeout.toMillis() + TimeUnit.SECONDS.toMillis(10);
+        if (!outstanding.tryAcquire(config.maxOutstanding, drainMillis, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException((config.maxOutstanding - outstanding.availablePermits())
+                    + " requests still outstanding " + drainMillis + " ms after the run; their latencies are missing");
+        }
+        return result;
+    }
+
+    private HttpRequest request(Operation op, Random random) {
+        switch (op) {
+            case BOOKS:
+                return get(libraryUrl + "/api/books");
+            case RECOMMENDATIONS:
+                return get(libraryUrl + "/api/users/" + data.randomUser(random) + "/recommendations");
+            case MARK_READ:
+                return post(libraryUrl + "/api/users/" + data.randomUser(random) + "/mark-read/" + data.randomBook(random), "");
+            case CONVERT:
+                return post(usageUrl + "/api/convert", data.convertPayload(random));
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + op);
+        }
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(config.requestTimeout).header("Accept-Encoding", "gzip").GET().build();
+    }
+
+    private HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(config.requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.loadtest;
+
+/**
+ * Request types in the workload mix, keyed by the names used in {@code loadtest.mix}.
+ */
+public enum Operation {
+    BOOKS("books"),
+    RECOMMENDATIONS("recommendations"),
+    MARK_READ("mark-read"),
+    CONVERT("convert");
+
+    final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation op : values()) {
+            if (op.key.equals(key)) return op;
+        }
+        throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + key);
+    }
+}
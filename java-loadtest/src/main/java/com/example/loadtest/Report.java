@@ -0,0 +1,100 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints the per-operation summary and writes it to {@code summary.csv}, plus one HdrHistogram percentile
+ * distribution ({@code <operation>.hgrm}) per operation. Offered load counts every scheduled request; throughput and
+ * percentiles cover successful requests only. When a baseline summary is given, its row is shown under each operation.
+ */
+class Report {
+    private static final String HEADER = "operation,offered,ok,errors,offered_rps,ok_rps,p50_ms,p99_ms,p999_ms,max_ms";
+    private static final String ROW_FORMAT = "%-16s %9s %9s %7s %11s %9s %9s %9s %9s %9s%n";
+
+    private final LoadTestConfig config;
+
+    Report(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    void write(OpenLoadGenerator.Result result) throws IOException {
+        Files.createDirectories(config.reportDir);
+        Map<String, String[]> baseline = readBaseline();
+        List<String> csv = new ArrayList<>();
+        csv.add(HEADER);
+
+        System.out.printf("%n" + ROW_FORMAT, "operation", "offered", "ok", "errors", "offered/s", "ok/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Operation, Histogram> e : result.latencies.entrySet()) {
+            Operation op = e.getKey();
+            Histogram h = e.getValue();
+            long offered = result.offered.get(op).get();
+            String[] row = {
+                    op.key,
+                    Long.toString(offered),
+                    Long.toString(h.getTotalCount()),
+                    Long.toString(result.errors.get(op).get()),
+                    format(offered / result.elapsedSeconds),
+                    format(h.getTotalCount() / result.elapsedSeconds),
+                    millis(h.getValueAtPercentile(50)),
+                    millis(h.getValueAtPercentile(99)),
+                    millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue())
+            };
+            csv.add(String.join(",", row));
+            System.out.printf(ROW_FORMAT, (Object[]) row);
+
+            String[] base = baseline.get(op.key);
+            if (base != null) {
+                base[0] = "  baseline";
+                System.out.printf(ROW_FORMAT, (Object[]) base);
+            }
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(config.reportDir.resolve(op.key + ".hgrm")))) {
+                h.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        if (result.timedOut.get() > 0) {
+            System.out.printf("%d requests timed out after %s%n", result.timedOut.get(), config.requestTimeout);
+        }
+        if (result.dropped.get() > 0) {
+            System.out.printf("%d requests were dropped because %d were already outstanding%n", result.dropped.get(), config.maxOutstanding);
+        }
+
+        Path summary = config.reportDir.resolve("summary.csv");
+        Files.write(summary, csv);
+        System.out.println("\nSummary written to " + summary.toAbsolutePath().normalize()
+                + " (pass it as -Dloadtest.baseline to compare a later run)");
+    }
+
+    private Map<String, String[]> readBaseline() throws IOException {
+        Map<String, String[]> rows = new HashMap<>();
+        if (config.baseline == null) return rows;
+        for (String line : Files.readAllLines(config.baseline)) {
+            if (line.isBlank() || line.startsWith("operation,")) continue;
+            String[] row = line.split(",");
+            if (row.length != HEADER.split(",").length) {
+                throw new IllegalArgumentException(config.baseline + " was written by an older harness; re-run the baseline");
+            }
+            rows.put(row[0], row);
+        }
+        return rows;
+    }
+
+    private static String millis(long micros) {
+        return format(micros / 1000.0);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
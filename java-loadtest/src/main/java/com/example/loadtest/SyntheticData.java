@@ -0,0 +1,144 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Deterministic synthetic users, books and reading history, loaded into the library app through its REST API.
+ * Book popularity follows a Zipf distribution so recommendations see a realistic long tail.
+ */
+class SyntheticData {
+    private static final String[] CATEGORIES = {"FICTION", "NON_FICTION", "SCIENCE", "HISTORY", "BIOGRAPHY", "FANTASY", "MYSTERY"};
+    private static final String[] LOCATIONS = {"Chennai", "Bengaluru", "Mumbai", "Pune", "Delhi"};
+    private static final String[] UNITS = {"kWh", "KL", "MT"};
+    private static final String[] MONTHS = {"Apr", "May", "June", "July", "Aug", "Sep", "Oct", "Nov", "Dec", "Jan", "Feb", "March"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client;
+    private final LoadTestConfig config;
+    private final Random random;
+
+    long[] userIds;
+    long[] bookIds;
+    ZipfSampler bookPopularity;
+
+    SyntheticData(HttpClient client, LoadTestConfig config) {
+        this.client = client;
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    void load(String libraryUrl) {
+        bookIds = createAll(config.books, i -> {
+            ObjectNode book = mapper.createObjectNode();
+            book.put("title", "Load Test Book " + i);
+            book.put("author", "Author " + random.nextInt(Math.max(1, config.books / 10)));
+            book.put("isbn", "LT-" + config.runId + "-" + i);
+            book.put("publicationDate", LocalDate.of(1900, 1, 1).plusDays(random.nextInt(45_000)).toString());
+            book.put("category", CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            return post(libraryUrl + "/api/books", book.toString());
+        });
+        userIds = createAll(config.users, i -> {
+            ObjectNode user = mapper.createObjectNode();
+            user.put("name", "User " + i);
+            user.put("email", "user" + i + "." + config.runId + "@loadtest.example");
+            return post(libraryUrl + "/api/users", user.toString());
+        });
+        bookPopularity = new ZipfSampler(bookIds.length, 1.0);
+        createAll(config.history, i -> {
+            String action = random.nextInt(5) == 0 ? "reading-list" : "mark-read";
+            return post(libraryUrl + "/api/users/" + randomUser(random) + "/" + action + "/" + randomBook(random), "");
+        });
+    }
+
+    long randomUser(Random random) {
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    long randomBook(Random random) {
+        return bookIds[bookPopularity.sample(random)];
+    }
+
+    /** A /api/convert request body with a random financial year, location and monthly values. */
+    String convertPayload(Random random) {
+        ObjectNode content = mapper.createObjectNode();
+        content.put("Fyear", Integer.toString(2020 + random.nextInt(6)));
+        content.put("Location", LOCATIONS[random.nextInt(LOCATIONS.length)]);
+        content.put("CatName", "CAT-" + random.nextInt(50));
+        content.put("Uom", UNITS[random.nextInt(UNITS.length)]);
+        for (String month : MONTHS) {
+            content.put(month, random.nextInt(4) == 0 ? "0" : String.format(Locale.ROOT, "%,d", random.nextInt(100_000)));
+        }
+        ObjectNode request = mapper.createObjectNode();
+        request.set("content", content);
+        return request.toString();
+    }
+
+    /** Issues {@code count} create calls with bounded concurrency and returns the ids they produced, in order. */
+    private long[] createAll(int count, Function<Integer, CompletableFuture<JsonNode>> create) {
+        Semaphore permits = new Semaphore(config.loadConcurrency);
+        List<CompletableFuture<JsonNode>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            permits.acquireUninterruptibly();
+            results.add(create.apply(i).whenComplete((r, e) -> permits.release()));
+        }
+        return results.stream()
+                .map(CompletableFuture::join)
+                .mapToLong(node -> node.path("id").asLong())
+                .toArray();
+    }
+
+    private CompletableFuture<JsonNode> post(String url, String json) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("POST " + url + " failed with " + response.statusCode() + ": " + response.body());
+            }
+            try {
+                return mapper.readTree(response.body());
+            } catch (Exception e) {
+                throw new IllegalStateException("Unreadable response from " + url, e);
+            }
+        });
+    }
+
+    /** Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent. */
+    static class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -1,34 +1,50 @@
 package com.example.library.config;
 
-import com.example.library.model.Book;
 import com.example.library.model.Category;
-import com.example.library.model.User;
-import com.example.library.repository.BookRepository;
-import com.example.library.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.List;
 
 @Configuration
 public class DataInitializer {
 
+    private static final List<Object[]> SEED_BOOKS = List.of(
+            new Object[]{"The Time Machine", "H. G. Wells", "ISBN-001", Date.valueOf(LocalDate.of(1895,1,1)), Category.SCIENCE.name()},
+            new Object[]{"A Brief History of Time", "Stephen Hawking", "ISBN-002", Date.valueOf(LocalDate.of(1988,4,1)), Category.SCIENCE.name()},
+            new Object[]{"The Hobbit", "J.R.R. Tolkien", "ISBN-003", Date.valueOf(LocalDate.of(1937,9,21)), Category.FANTASY.name()},
+            new Object[]{"1984", "George Orwell", "ISBN-004", Date.valueOf(LocalDate.of(1949,6,8)), Category.FICTION.name()},
+            new Object[]{"Sapiens", "Yuval Noah Harari", "ISBN-005", Date.valueOf(LocalDate.of(2011,1,1)), Category.HISTORY.name()}
+    );
+
+    private static final List<Object[]> SEED_USERS = List.of(
+            new Object[]{"Alice", "alice@example.com"},
+            new Object[]{"Bob", "bob@example.com"}
+    );
+
+    /**
+     * Seeds the sample books and users when the catalog is empty. A single existence probe on
+     * {@code books} decides, and each table is written with a single JDBC batch instead of one
+     * {@code save()} per row (identity ids would otherwise disable Hibernate batching).
+     * Set {@code library.seed.enabled=false} to skip seeding without touching the database; the flag is
+     * read at runtime so it also works for AOT-processed builds.
+     */
     @Bean
-    CommandLineRunner init(BookRepository bookRepository, UserRepository userRepository) {
+    CommandLineRunner init(JdbcTemplate jdbcTemplate, @Value("${library.seed.enabled:true}") boolean seedEnabled) {
         return args -> {
-            if (bookRepository.count() == 0) {
-                bookRepository.save(new Book(1L, "The Time Machine", "H. G. Wells", "ISBN-001", LocalDate.of(1895,1,1), Category.SCIENCE));
-                bookRepository.save(new Book(2L, "A Brief History of Time", "Stephen Hawking", "ISBN-002", LocalDate.of(1988,4,1), Category.SCIENCE));
-                bookRepository.save(new Book(3L, "The Hobbit", "J.R.R. Tolkien", "ISBN-003", LocalDate.of(1937,9,21), Category.FANTASY));
-                bookRepository.save(new Book(4L, "1984", "George Orwell", "ISBN-004", LocalDate.of(1949,6,8), Category.FICTION));
-                bookRepository.save(new Book(5L, "Sapiens", "Yuval Noah Harari", "ISBN-005", LocalDate.of(2011,1,1), Category.HISTORY));
-            }
-
-            if (userRepository.count() == 0) {
-                userRepository.save(new User(1L, "Alice", "alice@example.com"));
-                userRepository.save(new User(2L, "Bob", "bob@example.com"));
-            }
+            if (!seedEnabled) return;
+
+            if (!jdbcTemplate.queryForList("select 1 from books limit 1").isEmpty()) return;
+
+            jdbcTemplate.batchUpdate(
+                    "insert into books (title, author, isbn, publication_date, category) values (?, ?, ?, ?, ?)",
+                    SEED_BOOKS);
+            jdbcTemplate.batchUpdate("insert into users (name, email) values (?, ?)", SEED_USERS);
         };
     }
 }
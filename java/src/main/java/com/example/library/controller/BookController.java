@@ -6,6 +6,7 @@ import com.example.library.service.BookService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,7 +30,9 @@ public class BookController {
 
     @GetMapping
     public List<Book> getAll(@RequestParam(value = "author", required = false) String author,
-                             @RequestParam(value = "category", required = false) Category category) {
+                             @RequestParam(value = "category", required = false) Category category,
+                             WebRequest request) {
+        if (request.checkNotModified(bookService.getCatalogVersion())) return null;
         if (author != null) return bookService.getBooksByAuthor(author);
         if (category != null) return bookService.getBooksByCategory(category);
         return bookService.getAllBooks();
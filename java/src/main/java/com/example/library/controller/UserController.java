@@ -3,14 +3,13 @@ package com.example.library.controller;
 import com.example.library.model.Book;
 import com.example.library.model.ReadingHistory;
 import com.example.library.model.User;
-import com.example.library.repository.BookRepository;
-import com.example.library.repository.ReadingHistoryRepository;
+import com.example.library.service.BookService;
 import com.example.library.service.RecommendationService;
 import com.example.library.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +17,12 @@ import java.util.Optional;
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
-    private final BookRepository bookRepository;
-    private final ReadingHistoryRepository readingHistoryRepository;
+    private final BookService bookService;
     private final RecommendationService recommendationService;
 
-    public UserController(UserService userService, BookRepository bookRepository, ReadingHistoryRepository readingHistoryRepository, RecommendationService recommendationService) {
+    public UserController(UserService userService, BookService bookService, RecommendationService recommendationService) {
         this.userService = userService;
-        this.bookRepository = bookRepository;
-        this.readingHistoryRepository = readingHistoryRepository;
+        this.bookService = bookService;
         this.recommendationService = recommendationService;
     }
 
@@ -38,25 +35,26 @@ public class UserController {
     @PostMapping("/{userId}/reading-list/{bookId}")
     public ResponseEntity<?> addToReadingList(@PathVariable Long userId, @PathVariable Long bookId) {
         Optional<User> u = userService.getUser(userId);
-        Optional<Book> b = bookRepository.findById(bookId);
+        Optional<Book> b = bookService.getById(bookId);
         if (!u.isPresent() || !b.isPresent()) return ResponseEntity.notFound().build();
-        ReadingHistory rh = new ReadingHistory(bookId, u.get(), b.get(), ReadingHistory.Status.READING_LIST, LocalDateTime.now());
-        readingHistoryRepository.save(rh);
+        ReadingHistory rh = userService.recordHistory(u.get(), b.get(), ReadingHistory.Status.READING_LIST);
         return ResponseEntity.ok(rh);
     }
 
     @PostMapping("/{userId}/mark-read/{bookId}")
     public ResponseEntity<?> markAsRead(@PathVariable Long userId, @PathVariable Long bookId) {
         Optional<User> u = userService.getUser(userId);
-        Optional<Book> b = bookRepository.findById(bookId);
+        Optional<Book> b = bookService.getById(bookId);
         if (!u.isPresent() || !b.isPresent()) return ResponseEntity.notFound().build();
-        ReadingHistory rh = new ReadingHistory(bookId, u.get(), b.get(), ReadingHistory.Status.READ, LocalDateTime.now());
-        readingHistoryRepository.save(rh);
+        ReadingHistory rh = userService.recordHistory(u.get(), b.get(), ReadingHistory.Status.READ);
         return ResponseEntity.ok(rh);
     }
 
     @GetMapping("/{userId}/recommendations")
-    public ResponseEntity<List<Book>> getRecommendations(@PathVariable Long userId, @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    public ResponseEntity<List<Book>> getRecommendations(@PathVariable Long userId, @RequestParam(value = "limit", defaultValue = "10") int limit, WebRequest request) {
+        // recommendations depend on the catalog, this user's history and everyone's read counts
+        String etag = bookService.getCatalogVersion() + "-" + userService.getHistoryVersion(userId) + "-" + userService.getReadVersion();
+        if (request.checkNotModified(etag)) return null;
         List<Book> recs = recommendationService.recommendForUser(userId, limit);
         return ResponseEntity.ok(recs);
     }
@@ -3,6 +3,7 @@ package com.example.library.repository;
 import com.example.library.model.Book;
 import com.example.library.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -10,4 +11,12 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     boolean existsByIsbn(String isbn);
     List<Book> findByAuthor(String author);
     List<Book> findByCategory(Category category);
+
+    interface BookCategoryRow {
+        Long getId();
+        Category getCategory();
+    }
+
+    @Query("select b.id as id, b.category as category from Book b")
+    List<BookCategoryRow> findAllCategories();
 }
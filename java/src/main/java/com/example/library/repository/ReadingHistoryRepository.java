@@ -3,11 +3,36 @@ package com.example.library.repository;
 import com.example.library.model.ReadingHistory;
 import com.example.library.model.User;
 import com.example.library.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReadingHistoryRepository extends JpaRepository<ReadingHistory, Long> {
     List<ReadingHistory> findByUser(User user);
     List<ReadingHistory> findByBook(Book book);
+
+    /** Flat view of a history row, so scans do not load the user and book entities. */
+    interface HistoryRow {
+        Long getId();
+        Long getUserId();
+        Long getBookId();
+        ReadingHistory.Status getStatus();
+        LocalDateTime getTimestamp();
+    }
+
+    @Query("select h.id as id, h.user.id as userId, h.book.id as bookId, h.status as status, h.timestamp as timestamp"
+            + " from ReadingHistory h where h.id > :afterId order by h.id")
+    List<HistoryRow> findRowsAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select h.id as id, h.user.id as userId, h.book.id as bookId, h.status as status, h.timestamp as timestamp"
+            + " from ReadingHistory h where h.timestamp > :since and h.id > :afterId order by h.id")
+    List<HistoryRow> findRowsSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select h.timestamp from ReadingHistory h where h.id = :id")
+    Optional<LocalDateTime> findTimestampById(@Param("id") Long id);
 }
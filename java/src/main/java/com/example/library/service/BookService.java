@@ -12,9 +12,12 @@ import java.util.Optional;
 @Service
 public class BookService {
     private final BookRepository bookRepository;
+    private final RecommendationIndex recommendationIndex;
+    private final VersionCounter catalogVersion = new VersionCounter();
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, RecommendationIndex recommendationIndex) {
         this.bookRepository = bookRepository;
+        this.recommendationIndex = recommendationIndex;
     }
 
     @Transactional
@@ -22,7 +25,19 @@ public class BookService {
         if (bookRepository.existsByIsbn(book.getIsbn())) {
             throw new IllegalArgumentException("ISBN already exists");
         }
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookChanged(saved);
+        return saved;
+    }
+
+    /** Called when the recommendation index picked up book changes from the database, e.g. made by another instance. */
+    public void catalogReloaded() {
+        catalogVersion.incrementAfterCommit();
+    }
+
+    /** Changes whenever a book is added, updated or deleted. */
+    public String getCatalogVersion() {
+        return catalogVersion.current();
     }
 
     public List<Book> getAllBooks() {
@@ -50,11 +65,22 @@ public class BookService {
         book.setIsbn(updated.getIsbn());
         book.setPublicationDate(updated.getPublicationDate());
         book.setCategory(updated.getCategory());
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookChanged(saved);
+        return saved;
     }
 
     @Transactional
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        VersionCounter.afterCommit(() -> recommendationIndex.bookDeleted(id));
+        catalogVersion.incrementAfterCommit();
+    }
+
+    private void bookChanged(Book book) {
+        Long id = book.getId();
+        Category category = book.getCategory();
+        VersionCounter.afterCommit(() -> recommendationIndex.bookSaved(id, category));
+        catalogVersion.incrementAfterCommit();
     }
 }
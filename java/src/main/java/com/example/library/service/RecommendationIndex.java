@@ -0,0 +1,483 @@
+package com.example.library.service;
+
+import com.example.library.model.Category;
+import com.example.library.model.ReadingHistory;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.ReadingHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of the reading history used by {@link RecommendationService}: overall read counts per book,
+ * per-user history and read books, and book ids grouped by category.
+ * <p>
+ * The history-derived state can be written to and restored from a binary snapshot (see
+ * {@link RecommendationIndexLoader}). Book lists are always rebuilt from the books table, which is small
+ * next to reading_history. Users keep book ids rather than categories, so like the database-backed algorithm
+ * their favourite categories follow the books' current categories.
+ * Until {@link #markReady()} is called, committed changes are only queued.
+ */
+@Component
+public class RecommendationIndex {
+    private static final int SNAPSHOT_MAGIC = 0x4C524958; // "LRIX"
+    private static final int SNAPSHOT_VERSION = 3;
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final Duration replayOverlap;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private volatile boolean ready;
+
+    // guarded by lock
+    private final Map<Long, Long> popularity = new HashMap<>();
+    private final Map<Long, UserStats> users = new HashMap<>();
+    private final Map<Category, NavigableSet<Long>> booksByCategory = new EnumMap<>(Category.class);
+    private final NavigableSet<Long> allBookIds = new TreeSet<>();
+    private final Map<Long, Category> bookCategories = new HashMap<>();
+    // ids of applied rows within replayOverlap of the watermark, so a replay does not count them twice
+    private final Map<Long, LocalDateTime> recentIds = new LinkedHashMap<>();
+    private LocalDateTime watermark;
+    private long maxHistoryId;
+    private LocalDateTime maxHistoryTimestamp;
+    private volatile List<Long> popularRanking;
+
+    public RecommendationIndex(@Value("${library.snapshot.replay-overlap:PT1M}") Duration replayOverlap) {
+        this.replayOverlap = replayOverlap;
+    }
+
+    /**
+     * One user's history: sorted ids of the books in it with the number of rows for each, and the sorted ids
+     * of the books read. Instances are never modified once published, so a snapshot only has to copy references.
+     */
+    private static final class UserStats {
+        static final UserStats EMPTY = new UserStats(new long[0], new long[0], new long[0]);
+
+        final long[] historyBookIds;
+        final long[] historyCounts;
+        final long[] readBookIds;
+
+        UserStats(long[] historyBookIds, long[] historyCounts, long[] readBookIds) {
+            this.historyBookIds = historyBookIds;
+            this.historyCounts = historyCounts;
+            this.readBookIds = readBookIds;
+        }
+
+        boolean hasRead(long bookId) {
+            return Arrays.binarySearch(readBookIds, bookId) >= 0;
+        }
+
+        UserStats with(long bookId, boolean read) {
+            long[] ids = historyBookIds;
+            long[] counts;
+            int pos = Arrays.binarySearch(ids, bookId);
+            if (pos >= 0) {
+                counts = historyCounts.clone();
+                counts[pos]++;
+            } else {
+                ids = insert(historyBookIds, -pos - 1, bookId);
+                counts = insert(historyCounts, -pos - 1, 1);
+            }
+            long[] readIds = readBookIds;
+            if (read) {
+                int readPos = Arrays.binarySearch(readIds, bookId);
+                if (readPos < 0) readIds = insert(readBookIds, -readPos - 1, bookId);
+            }
+            return new UserStats(ids, counts, readIds);
+        }
+
+        private static long[] insert(long[] values, int index, long value) {
+            long[] result = new long[values.length + 1];
+            System.arraycopy(values, 0, result, 0, index);
+            result[index] = value;
+            System.arraycopy(values, index, result, index + 1, values.length - index);
+            return result;
+        }
+    }
+
+    private record HistoryEvent(Long id, Long userId, Long bookId, ReadingHistory.Status status, LocalDateTime timestamp) {
+    }
+
+    /** History-derived state detached from the index, as written to or read from a snapshot. */
+    private record State(long maxHistoryId, LocalDateTime maxHistoryTimestamp, LocalDateTime watermark,
+                         Map<Long, Long> popularity, Map<Long, UserStats> users, Map<Long, LocalDateTime> recentIds) {
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void historyCommitted(ReadingHistory history) {
+        HistoryEvent event = new HistoryEvent(history.getId(), history.getUser().getId(), history.getBook().getId(),
+                history.getStatus(), history.getTimestamp());
+        submit(() -> apply(event));
+    }
+
+    public void bookSaved(Long bookId, Category category) {
+        submit(() -> putBook(bookId, category));
+    }
+
+    public void bookDeleted(Long bookId) {
+        submit(() -> removeBook(bookId));
+    }
+
+    /**
+     * Applies changes queued while loading and starts applying new ones immediately. Readers never see
+     * {@code ready} before the queued changes are in.
+     */
+    public void markReady() {
+        lock.writeLock().lock();
+        try {
+            applyPending();
+            ready = true;
+            // picks up changes queued by threads that read ready == false while we were draining
+            applyPending();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Replaces the book lists with the given rows and returns whether any book or category changed. */
+    public boolean loadBooks(List<BookRepository.BookCategoryRow> rows) {
+        Map<Long, Category> categories = new HashMap<>(rows.size() * 2);
+        for (BookRepository.BookCategoryRow row : rows) {
+            categories.put(row.getId(), row.getCategory());
+        }
+        lock.writeLock().lock();
+        try {
+            if (categories.equals(bookCategories)) return false;
+            booksByCategory.clear();
+            allBookIds.clear();
+            bookCategories.clear();
+            categories.forEach(this::putBook);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Applies history rows and returns those that had not been applied before. */
+    public List<ReadingHistoryRepository.HistoryRow> replay(List<ReadingHistoryRepository.HistoryRow> rows) {
+        List<ReadingHistoryRepository.HistoryRow> applied = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (ReadingHistoryRepository.HistoryRow row : rows) {
+                if (apply(new HistoryEvent(row.getId(), row.getUserId(), row.getBookId(), row.getStatus(), row.getTimestamp()))) {
+                    applied.add(row);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return applied;
+    }
+
+    /** Drops all history-derived state. */
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            popularity.clear();
+            users.clear();
+            recentIds.clear();
+            watermark = null;
+            maxHistoryId = 0;
+            maxHistoryTimestamp = null;
+            popularRanking = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long maxHistoryId() {
+        lock.readLock().lock();
+        try {
+            return maxHistoryId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Timestamp of the history row with the highest id applied, used to check a snapshot against the database. */
+    public LocalDateTime maxHistoryTimestamp() {
+        lock.readLock().lock();
+        try {
+            return maxHistoryTimestamp;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Timestamp after which history rows must be replayed on top of this state, or null for a full scan. */
+    public LocalDateTime replayFrom() {
+        lock.readLock().lock();
+        try {
+            return watermark == null ? null : watermark.minus(replayOverlap);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Same ordering as the database-backed algorithm: unread books from the user's favourite categories,
+     * then unread popular books, then any unread books.
+     */
+    public List<Long> recommend(Long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            UserStats stats = users.getOrDefault(userId, UserStats.EMPTY);
+            Set<Long> recommendations = new LinkedHashSet<>();
+
+            for (Category c : favoriteCategories(stats)) {
+                for (Long id : booksByCategory.getOrDefault(c, Collections.emptyNavigableSet())) {
+                    if (recommendations.size() >= limit) break;
+                    if (!stats.hasRead(id)) recommendations.add(id);
+                }
+                if (recommendations.size() >= limit) break;
+            }
+
+            if (recommendations.size() < limit) {
+                for (Long id : popularRanking()) {
+                    if (recommendations.size() >= limit) break;
+                    if (!stats.hasRead(id) && allBookIds.contains(id)) recommendations.add(id);
+                }
+            }
+
+            if (recommendations.size() < limit) {
+                for (Long id : allBookIds) {
+                    if (recommendations.size() >= limit) break;
+                    if (!stats.hasRead(id)) recommendations.add(id);
+                }
+            }
+            return new ArrayList<>(recommendations);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the history-derived state. Only reference copies are taken under the lock; encoding happens
+     * outside it. Layout (big-endian): magic, format version, max history id and its timestamp, watermark,
+     * (bookId, readCount) pairs, per user (userId, (bookId, rowCount) pairs, read book ids), and the recently
+     * applied (id, timestamp) pairs.
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        State state;
+        lock.readLock().lock();
+        try {
+            state = new State(maxHistoryId, maxHistoryTimestamp, watermark, new HashMap<>(popularity),
+                    new HashMap<>(users), new LinkedHashMap<>(recentIds));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeLong(state.maxHistoryId());
+        writeTimestamp(out, state.maxHistoryTimestamp());
+        writeTimestamp(out, state.watermark());
+
+        out.writeInt(state.popularity().size());
+        for (Map.Entry<Long, Long> e : state.popularity().entrySet()) {
+            out.writeLong(e.getKey());
+            out.writeLong(e.getValue());
+        }
+
+        out.writeInt(state.users().size());
+        for (Map.Entry<Long, UserStats> e : state.users().entrySet()) {
+            UserStats stats = e.getValue();
+            out.writeLong(e.getKey());
+            out.writeInt(stats.historyBookIds.length);
+            for (int i = 0; i < stats.historyBookIds.length; i++) {
+                out.writeLong(stats.historyBookIds[i]);
+                out.writeLong(stats.historyCounts[i]);
+            }
+            out.writeInt(stats.readBookIds.length);
+            for (long bookId : stats.readBookIds) {
+                out.writeLong(bookId);
+            }
+        }
+
+        out.writeInt(state.recentIds().size());
+        for (Map.Entry<Long, LocalDateTime> e : state.recentIds().entrySet()) {
+            out.writeLong(e.getKey());
+            writeTimestamp(out, e.getValue());
+        }
+    }
+
+    /**
+     * Replaces the history-derived state with a snapshot written by {@link #writeSnapshot(DataOutput)}.
+     * The input is decoded before the lock is taken.
+     */
+    public void restore(DataInput in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) throw new IllegalArgumentException("Not a recommendation snapshot");
+        int version = in.readInt();
+        if (version != SNAPSHOT_VERSION) throw new IllegalArgumentException("Unsupported snapshot version " + version);
+
+        long maxId = in.readLong();
+        LocalDateTime maxTimestamp = readTimestamp(in);
+        LocalDateTime mark = readTimestamp(in);
+
+        int bookCount = in.readInt();
+        Map<Long, Long> restoredPopularity = new HashMap<>(bookCount * 2);
+        for (int i = 0; i < bookCount; i++) {
+            long bookId = in.readLong();
+            restoredPopularity.put(bookId, in.readLong());
+        }
+
+        int userCount = in.readInt();
+        Map<Long, UserStats> restoredUsers = new HashMap<>(userCount * 2);
+        for (int i = 0; i < userCount; i++) {
+            long userId = in.readLong();
+            long[] historyBookIds = new long[in.readInt()];
+            long[] historyCounts = new long[historyBookIds.length];
+            for (int j = 0; j < historyBookIds.length; j++) {
+                historyBookIds[j] = in.readLong();
+                historyCounts[j] = in.readLong();
+            }
+            long[] read = new long[in.readInt()];
+            for (int j = 0; j < read.length; j++) {
+                read[j] = in.readLong();
+            }
+            restoredUsers.put(userId, new UserStats(historyBookIds, historyCounts, read));
+        }
+
+        int recentCount = in.readInt();
+        Map<Long, LocalDateTime> restoredRecent = new LinkedHashMap<>();
+        for (int i = 0; i < recentCount; i++) {
+            long id = in.readLong();
+            restoredRecent.put(id, readTimestamp(in));
+        }
+
+        lock.writeLock().lock();
+        try {
+            reset();
+            maxHistoryId = maxId;
+            maxHistoryTimestamp = maxTimestamp;
+            watermark = mark;
+            popularity.putAll(restoredPopularity);
+            users.putAll(restoredUsers);
+            recentIds.putAll(restoredRecent);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void submit(Runnable change) {
+        pending.add(change);
+        if (ready) {
+            lock.writeLock().lock();
+            try {
+                applyPending();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // caller holds the write lock
+    private void applyPending() {
+        Runnable change;
+        while ((change = pending.poll()) != null) {
+            change.run();
+        }
+    }
+
+    private boolean apply(HistoryEvent event) {
+        if (recentIds.containsKey(event.id())) return false;
+        if (event.id() > maxHistoryId) {
+            maxHistoryId = event.id();
+            maxHistoryTimestamp = event.timestamp();
+        }
+        if (event.timestamp() != null) {
+            recentIds.put(event.id(), event.timestamp());
+            // a row stamped ahead of this clock (skew between instances) must not move the watermark past rows to come
+            LocalDateTime seen = event.timestamp();
+            LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+            if (seen.isAfter(now)) seen = now;
+            if (watermark == null || seen.isAfter(watermark)) {
+                watermark = seen;
+            }
+            LocalDateTime cutoff = watermark.minus(replayOverlap);
+            Iterator<LocalDateTime> it = recentIds.values().iterator();
+            while (it.hasNext() && it.next().isBefore(cutoff)) {
+                it.remove();
+            }
+        }
+
+        boolean read = event.status() == ReadingHistory.Status.READ;
+        UserStats stats = users.getOrDefault(event.userId(), UserStats.EMPTY);
+        users.put(event.userId(), stats.with(event.bookId(), read));
+        if (read) {
+            popularity.merge(event.bookId(), 1L, Long::sum);
+            popularRanking = null;
+        }
+        return true;
+    }
+
+    private void putBook(Long bookId, Category category) {
+        removeBook(bookId);
+        allBookIds.add(bookId);
+        bookCategories.put(bookId, category);
+        if (category != null) {
+            booksByCategory.computeIfAbsent(category, c -> new TreeSet<>()).add(bookId);
+        }
+    }
+
+    private void removeBook(Long bookId) {
+        allBookIds.remove(bookId);
+        Category previous = bookCategories.remove(bookId);
+        if (previous != null) {
+            booksByCategory.get(previous).remove(bookId);
+        }
+    }
+
+    // history rows per category of the books' current categories
+    private List<Category> favoriteCategories(UserStats stats) {
+        long[] counts = new long[CATEGORIES.length];
+        for (int i = 0; i < stats.historyBookIds.length; i++) {
+            Category category = bookCategories.get(stats.historyBookIds[i]);
+            if (category != null) counts[category.ordinal()] += stats.historyCounts[i];
+        }
+        return Arrays.stream(CATEGORIES)
+                .filter(c -> counts[c.ordinal()] > 0)
+                .sorted(Comparator.comparingLong((Category c) -> counts[c.ordinal()]).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> popularRanking() {
+        List<Long> ranking = popularRanking;
+        if (ranking == null) {
+            ranking = popularity.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.<Long, Long>comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            popularRanking = ranking;
+        }
+        return ranking;
+    }
+
+    private static void writeTimestamp(DataOutput out, LocalDateTime timestamp) throws IOException {
+        out.writeBoolean(timestamp != null);
+        if (timestamp != null) {
+            out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(timestamp.getNano());
+        }
+    }
+
+    private static LocalDateTime readTimestamp(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        long epochSecond = in.readLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, in.readInt(), ZoneOffset.UTC);
+    }
+}
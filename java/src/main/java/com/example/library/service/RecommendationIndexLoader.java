@@ -0,0 +1,169 @@
+package com.example.library.service;
+
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.ReadingHistoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Warms up the {@link RecommendationIndex} once the application is ready and keeps its snapshot file current.
+ * <p>
+ * With {@code library.snapshot.enabled=true} the snapshot at {@code library.snapshot.path} is read on
+ * startup and only history rows newer than its watermark (minus {@code library.snapshot.replay-overlap}) are
+ * replayed; otherwise, or if the snapshot does not match the database, reading_history is scanned in full.
+ * Recommendations are served from the database until loading finishes.
+ * <p>
+ * Afterwards the books table and the tail of reading_history are polled every {@code library.index.tail-interval},
+ * so changes written by other instances reach the index too. The overlap must therefore cover the clock skew
+ * between instances and the longest transaction that writes history.
+ */
+@Component
+@Lazy(false)
+public class RecommendationIndexLoader {
+    private static final Logger log = LoggerFactory.getLogger(RecommendationIndexLoader.class);
+    // databases may round or truncate the stored fraction of a second
+    private static final Duration TIMESTAMP_TOLERANCE = Duration.ofSeconds(1);
+
+    private final RecommendationIndex recommendationIndex;
+    private final ReadingHistoryRepository readingHistoryRepository;
+    private final BookRepository bookRepository;
+    private final UserService userService;
+    private final BookService bookService;
+    private final boolean snapshotEnabled;
+    private final Path snapshotPath;
+    private final int batchSize;
+
+    public RecommendationIndexLoader(RecommendationIndex recommendationIndex,
+                                     ReadingHistoryRepository readingHistoryRepository,
+                                     BookRepository bookRepository,
+                                     UserService userService,
+                                     BookService bookService,
+                                     @Value("${library.snapshot.enabled:false}") boolean snapshotEnabled,
+                                     @Value("${library.snapshot.path:data/recommendation-index.bin}") Path snapshotPath,
+                                     @Value("${library.snapshot.replay-batch-size:5000}") int batchSize) {
+        this.recommendationIndex = recommendationIndex;
+        this.readingHistoryRepository = readingHistoryRepository;
+        this.bookRepository = bookRepository;
+        this.userService = userService;
+        this.bookService = bookService;
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotPath = snapshotPath;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        recommendationIndex.loadBooks(bookRepository.findAllCategories());
+        boolean restored = snapshotEnabled && restoreSnapshot();
+        LocalDateTime since = restored ? recommendationIndex.replayFrom() : null;
+        long replayed = replay(since, rows -> { });
+        recommendationIndex.markReady();
+        log.info("Recommendation index ready in {} ms ({} history rows replayed{})",
+                (System.nanoTime() - start) / 1_000_000, replayed, restored ? " on top of " + snapshotPath : "");
+    }
+
+    /**
+     * Picks up book changes and history rows committed since the last poll. Rows this instance already applied
+     * are skipped by the index, so only changes made elsewhere bump the ETag versions.
+     */
+    @Scheduled(initialDelayString = "${library.index.tail-interval:PT10S}", fixedDelayString = "${library.index.tail-interval:PT10S}")
+    public void pollTail() {
+        if (!recommendationIndex.isReady()) return;
+        if (recommendationIndex.loadBooks(bookRepository.findAllCategories())) {
+            bookService.catalogReloaded();
+        }
+        replay(recommendationIndex.replayFrom(), userService::historyReplayed);
+    }
+
+    @Scheduled(initialDelayString = "${library.snapshot.interval:PT5M}", fixedDelayString = "${library.snapshot.interval:PT5M}")
+    public synchronized void writeSnapshot() {
+        if (!snapshotEnabled || !recommendationIndex.isReady()) return;
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            Path dir = snapshotPath.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                recommendationIndex.writeSnapshot(out);
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write recommendation snapshot {}", snapshotPath, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        writeSnapshot();
+    }
+
+    private boolean restoreSnapshot() {
+        if (!Files.isRegularFile(snapshotPath)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            recommendationIndex.restore(in);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable recommendation snapshot {}", snapshotPath, e);
+            recommendationIndex.reset();
+            return false;
+        }
+        if (!matchesDatabase()) {
+            log.warn("Recommendation snapshot {} does not match the database, rebuilding from reading_history", snapshotPath);
+            recommendationIndex.reset();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * A snapshot taken against another (or a recreated) database must not be reused: the newest row it saw
+     * has to still exist with the same timestamp.
+     */
+    private boolean matchesDatabase() {
+        long maxHistoryId = recommendationIndex.maxHistoryId();
+        if (maxHistoryId == 0) return true;
+        LocalDateTime expected = recommendationIndex.maxHistoryTimestamp();
+        Optional<LocalDateTime> actual = readingHistoryRepository.findTimestampById(maxHistoryId);
+        if (actual.isEmpty() || expected == null) return false;
+        return Duration.between(expected, actual.get()).abs().compareTo(TIMESTAMP_TOLERANCE) < 0;
+    }
+
+    private long replay(LocalDateTime since, Consumer<List<ReadingHistoryRepository.HistoryRow>> onApplied) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        long afterId = 0;
+        long replayed = 0;
+        List<ReadingHistoryRepository.HistoryRow> rows;
+        do {
+            rows = since == null
+                    ? readingHistoryRepository.findRowsAfterId(afterId, batch)
+                    : readingHistoryRepository.findRowsSince(since, afterId, batch);
+            List<ReadingHistoryRepository.HistoryRow> applied = recommendationIndex.replay(rows);
+            if (!applied.isEmpty()) onApplied.accept(applied);
+            replayed += applied.size();
+            if (!rows.isEmpty()) afterId = rows.get(rows.size() - 1).getId();
+        } while (rows.size() == batchSize);
+        return replayed;
+    }
+}
@@ -18,11 +18,13 @@ public class RecommendationService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final ReadingHistoryRepository readingHistoryRepository;
+    private final RecommendationIndex recommendationIndex;
 
-    public RecommendationService(UserRepository userRepository, BookRepository bookRepository, ReadingHistoryRepository readingHistoryRepository) {
+    public RecommendationService(UserRepository userRepository, BookRepository bookRepository, ReadingHistoryRepository readingHistoryRepository, RecommendationIndex recommendationIndex) {
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
         this.readingHistoryRepository = readingHistoryRepository;
+        this.recommendationIndex = recommendationIndex;
     }
 
     /**
@@ -30,8 +32,19 @@ public class RecommendationService {
      * 1) Find categories the user reads most.
      * 2) Recommend books from those categories the user hasn't read.
      * 3) If not enough, recommend popular books (by overall read count) excluding user's read books.
+     * Served from the {@link RecommendationIndex} once it has loaded, otherwise from the database.
      */
     public List<Book> recommendForUser(Long userId, int limit) {
+        if (!recommendationIndex.isReady()) return recommendFromHistory(userId, limit);
+        if (!userRepository.existsById(userId)) return Collections.emptyList();
+
+        List<Long> ids = recommendationIndex.recommend(userId, limit);
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream().map(books::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private List<Book> recommendFromHistory(Long userId, int limit) {
         Optional<User> userOpt = userRepository.findById(userId);
         if (!userOpt.isPresent()) return Collections.emptyList();
         User user = userOpt.get();
@@ -1,21 +1,38 @@
 package com.example.library.service;
 
 import com.example.library.exception.EmailAlreadyUsedException;
+import com.example.library.model.Book;
+import com.example.library.model.ReadingHistory;
 import com.example.library.model.User;
+import com.example.library.repository.ReadingHistoryRepository;
 import com.example.library.repository.UserRepository;
 
 import jakarta.validation.constraints.NotNull;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class UserService {
+    private static final VersionCounter NO_HISTORY = new VersionCounter();
+
     private final UserRepository userRepository;
+    private final ReadingHistoryRepository readingHistoryRepository;
+    private final RecommendationIndex recommendationIndex;
+    private final Map<Long, VersionCounter> historyVersions = new ConcurrentHashMap<>();
+    private final VersionCounter readVersion = new VersionCounter();
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, ReadingHistoryRepository readingHistoryRepository, RecommendationIndex recommendationIndex) {
         this.userRepository = userRepository;
+        this.readingHistoryRepository = readingHistoryRepository;
+        this.recommendationIndex = recommendationIndex;
     }
 
     public User createUser(@NotNull User user) {
@@ -23,10 +40,48 @@ public class UserService {
         if (existingUser.isPresent()) {
             throw new EmailAlreadyUsedException("Email already in use");
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // an id that had no user before now gets real recommendations, so cached ones must not match
+        historyVersions.computeIfAbsent(saved.getId(), id -> new VersionCounter()).incrementAfterCommit();
+        return saved;
     }
 
     public Optional<User> getUser(Long id) {
         return userRepository.findById(id);
     }
-}
\ No newline at end of file
+
+    @Transactional
+    public ReadingHistory recordHistory(User user, Book book, ReadingHistory.Status status) {
+        // UTC so the timestamps the index replays from never go backwards when the local clock changes
+        ReadingHistory saved = readingHistoryRepository.save(new ReadingHistory(null, user, book, status, LocalDateTime.now(ZoneOffset.UTC)));
+        // update the index before bumping versions so a new ETag never pairs with stale recommendations
+        VersionCounter.afterCommit(() -> recommendationIndex.historyCommitted(saved));
+        historyVersions.computeIfAbsent(user.getId(), id -> new VersionCounter()).incrementAfterCommit();
+        if (status == ReadingHistory.Status.READ) {
+            readVersion.incrementAfterCommit();
+        }
+        return saved;
+    }
+
+    /** Called for history rows the recommendation index picked up from the database, e.g. written by another instance. */
+    public void historyReplayed(List<ReadingHistoryRepository.HistoryRow> rows) {
+        boolean read = false;
+        for (ReadingHistoryRepository.HistoryRow row : rows) {
+            historyVersions.computeIfAbsent(row.getUserId(), id -> new VersionCounter()).incrementAfterCommit();
+            read |= row.getStatus() == ReadingHistory.Status.READ;
+        }
+        if (read) {
+            readVersion.incrementAfterCommit();
+        }
+    }
+
+    /** Changes whenever the given user's reading history is written. */
+    public String getHistoryVersion(Long userId) {
+        return historyVersions.getOrDefault(userId, NO_HISTORY).current();
+    }
+
+    /** Changes whenever any user marks a book as read, i.e. whenever overall popularity can change. */
+    public String getReadVersion() {
+        return readVersion.current();
+    }
+}
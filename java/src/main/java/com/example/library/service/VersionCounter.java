@@ -0,0 +1,39 @@
+package com.example.library.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of some piece of data, used to build ETags for cached reads.
+ * Increments are deferred until the surrounding transaction commits so a reader never pairs the
+ * new version with data that is not yet visible.
+ */
+public class VersionCounter {
+    /** Distinguishes versions handed out by this process from those of earlier runs. */
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong value = new AtomicLong();
+
+    public String current() {
+        return EPOCH + "." + value.get();
+    }
+
+    public void incrementAfterCommit() {
+        afterCommit(value::incrementAndGet);
+    }
+
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.library.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookControllerTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() throws Exception {
+        String etag = catalogEtag();
+
+        mvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void etagChangesWhenABookIsAddedOrUpdated() throws Exception {
+        String before = catalogEtag();
+        long id = addBook("ISBN-BC-1", "SCIENCE");
+        String afterAdd = catalogEtag();
+        assertThat(afterAdd).isNotEqualTo(before);
+
+        mvc.perform(put("/api/books/{id}", id).contentType(MediaType.APPLICATION_JSON).content(bookJson("ISBN-BC-1", "HISTORY")))
+                .andExpect(status().isOk());
+
+        String afterUpdate = catalogEtag();
+        assertThat(afterUpdate).isNotEqualTo(afterAdd);
+        mvc.perform(get("/api/books").header(HttpHeaders.IF_NONE_MATCH, afterAdd))
+                .andExpect(status().isOk());
+    }
+
+    private String catalogEtag() throws Exception {
+        String etag = mvc.perform(get("/api/books"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    private long addBook(String isbn, String category) throws Exception {
+        String body = mvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON).content(bookJson(isbn, category)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<Number>read(body, "$.id").longValue();
+    }
+
+    private static String bookJson(String isbn, String category) {
+        return "{\"title\":\"Test Book\",\"author\":\"Test Author\",\"isbn\":\"" + isbn
+                + "\",\"publicationDate\":\"2020-01-01\",\"category\":\"" + category + "\"}";
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.library.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserControllerTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModified() throws Exception {
+        long userId = createUser("etag-304@example.com");
+        String etag = recommendationsEtag(userId);
+
+        mvc.perform(get("/api/users/{id}/recommendations", userId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void etagChangesWhenTheUserMarksABookRead() throws Exception {
+        long userId = createUser("etag-read@example.com");
+        String before = recommendationsEtag(userId);
+
+        mvc.perform(post("/api/users/{id}/mark-read/{bookId}", userId, 1)).andExpect(status().isOk());
+
+        assertThat(recommendationsEtag(userId)).isNotEqualTo(before);
+        mvc.perform(get("/api/users/{id}/recommendations", userId).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void etagChangesWhenABookIsUpdated() throws Exception {
+        long userId = createUser("etag-book@example.com");
+        String before = recommendationsEtag(userId);
+
+        mvc.perform(put("/api/books/{id}", 2).contentType(MediaType.APPLICATION_JSON).content(
+                        "{\"title\":\"A Brief History of Time\",\"author\":\"Stephen Hawking\",\"isbn\":\"ISBN-002\","
+                                + "\"publicationDate\":\"1988-04-01\",\"category\":\"SCIENCE\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(recommendationsEtag(userId)).isNotEqualTo(before);
+    }
+
+    @Test
+    void etagChangesWhenAPreviouslyUnknownUserIsCreated() throws Exception {
+        // identity ids are sequential, so the next user gets the id right after this one
+        long unknownId = createUser("etag-before-unknown@example.com") + 1;
+        String before = recommendationsEtag(unknownId);
+
+        assertThat(createUser("etag-unknown@example.com")).isEqualTo(unknownId);
+
+        assertThat(recommendationsEtag(unknownId)).isNotEqualTo(before);
+    }
+
+    @Test
+    void anotherUsersReadingListDoesNotChangeTheEtag() throws Exception {
+        long userId = createUser("etag-mine@example.com");
+        long otherId = createUser("etag-other@example.com");
+        String before = recommendationsEtag(userId);
+
+        mvc.perform(post("/api/users/{id}/reading-list/{bookId}", otherId, 3)).andExpect(status().isOk());
+
+        mvc.perform(get("/api/users/{id}/recommendations", userId).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isNotModified());
+    }
+
+    private String recommendationsEtag(long userId) throws Exception {
+        String etag = mvc.perform(get("/api/users/{id}/recommendations", userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    private long createUser(String email) throws Exception {
+        String body = mvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Test User\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.<Number>read(body, "$.id").longValue();
+    }
+}
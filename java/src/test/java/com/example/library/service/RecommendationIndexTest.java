@@ -0,0 +1,191 @@
+package com.example.library.service;
+
+import com.example.library.model.Book;
+import com.example.library.model.Category;
+import com.example.library.model.ReadingHistory;
+import com.example.library.model.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.ReadingHistoryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecommendationIndexTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private static final ReadingHistory.Status READ = ReadingHistory.Status.READ;
+    private static final ReadingHistory.Status READING_LIST = ReadingHistory.Status.READING_LIST;
+
+    private static final List<BookRepository.BookCategoryRow> BOOKS = List.of(
+            book(1, Category.SCIENCE), book(2, Category.SCIENCE), book(3, Category.FANTASY),
+            book(4, Category.FICTION), book(5, Category.HISTORY), book(6, Category.MYSTERY), book(7, Category.MYSTERY));
+
+    @Test
+    void snapshotRoundTripGivesIdenticalRecommendations() throws IOException {
+        RecommendationIndex original = newIndex();
+        original.replay(List.of(
+                row(1, 1, 1, READ, T0),
+                row(2, 2, 4, READ, T0.plusMinutes(5)),
+                row(3, 2, 5, READ, T0.plusMinutes(10)),
+                row(4, 3, 5, READ, T0.plusMinutes(10)),
+                row(5, 3, 3, READING_LIST, T0.plusMinutes(11))));
+        original.markReady();
+
+        RecommendationIndex restored = newIndex();
+        restored.restore(read(snapshot(original)));
+        restored.markReady();
+
+        for (long userId = 1; userId <= 4; userId++) {
+            assertThat(restored.recommend(userId, 3)).isEqualTo(original.recommend(userId, 3));
+            assertThat(restored.recommend(userId, 10)).isEqualTo(original.recommend(userId, 10));
+        }
+        assertThat(restored.maxHistoryId()).isEqualTo(5);
+        assertThat(restored.maxHistoryTimestamp()).isEqualTo(T0.plusMinutes(11));
+        assertThat(restored.replayFrom()).isEqualTo(original.replayFrom());
+    }
+
+    @Test
+    void replayInsideOverlapWindowDoesNotDoubleCount() throws IOException {
+        RecommendationIndex original = newIndex();
+        original.replay(List.of(
+                row(1, 1, 1, READ, T0),
+                row(2, 2, 1, READ, T0.plusMinutes(5)),
+                row(3, 3, 2, READ, T0.plusMinutes(10))));
+
+        RecommendationIndex restored = newIndex();
+        restored.restore(read(snapshot(original)));
+        assertThat(restored.replayFrom()).isBefore(T0.plusMinutes(10));
+
+        // row 3 was already in the snapshot; only row 4 is new, so books 1 and 2 both have two reads
+        restored.replay(List.of(
+                row(3, 3, 2, READ, T0.plusMinutes(10)),
+                row(4, 4, 2, READ, T0.plusMinutes(10).plusSeconds(30))));
+        restored.markReady();
+
+        // user 9 has no history, so popularity decides; a double-counted row 3 would put book 2 first
+        assertThat(restored.recommend(9L, 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void categoryChangeAfterHistoryMovesTheAffinity() {
+        RecommendationIndex index = newIndex();
+        index.replay(List.of(row(1, 1, 3, READ, T0)));
+        index.markReady();
+        assertThat(index.recommend(1L, 1)).containsExactly(1L);
+
+        // book 3 moves from FANTASY to HISTORY, so the user now prefers HISTORY like the database algorithm does
+        index.bookSaved(3L, Category.HISTORY);
+
+        assertThat(index.recommend(1L, 3)).containsExactly(5L, 1L, 2L);
+    }
+
+    @Test
+    void restoreUsesCurrentBookCategories() throws IOException {
+        RecommendationIndex original = newIndex();
+        original.replay(List.of(row(1, 1, 6, READ, T0), row(2, 1, 6, READING_LIST, T0)));
+        original.markReady();
+        byte[] bytes = snapshot(original);
+
+        // book 6 moved to FICTION while the node was down
+        RecommendationIndex restored = newIndex(book(6, Category.FICTION));
+        restored.restore(read(bytes));
+        restored.markReady();
+
+        RecommendationIndex scanned = newIndex(book(6, Category.FICTION));
+        scanned.replay(List.of(row(1, 1, 6, READ, T0), row(2, 1, 6, READING_LIST, T0)));
+        scanned.markReady();
+
+        assertThat(restored.recommend(1L, 3)).containsExactly(4L, 1L, 2L).isEqualTo(scanned.recommend(1L, 3));
+    }
+
+    @Test
+    void tailReplayReturnsOnlyRowsNotAppliedYet() {
+        RecommendationIndex index = newIndex();
+        index.markReady();
+        index.historyCommitted(history(1, 1, 1, READ));
+
+        // row 1 was committed through this instance, row 2 by another one
+        List<ReadingHistoryRepository.HistoryRow> applied = index.replay(List.of(
+                row(1, 1, 1, READ, T0), row(2, 2, 2, READ, T0.plusSeconds(5))));
+
+        assertThat(applied).extracting(ReadingHistoryRepository.HistoryRow::getId).containsExactly(2L);
+        assertThat(index.recommend(9L, 2)).containsExactly(1L, 2L);
+        assertThat(index.replay(List.of(row(2, 2, 2, READ, T0.plusSeconds(5))))).isEmpty();
+    }
+
+    @Test
+    void restoreRejectsForeignData() {
+        byte[] bytes = new byte[16];
+        assertThatThrownBy(() -> newIndex().restore(read(bytes))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void changesCommittedWhileLoadingAreAppliedByMarkReady() {
+        RecommendationIndex index = newIndex();
+        index.historyCommitted(history(1, 1, 5, READ));
+        index.bookSaved(8L, Category.HISTORY);
+
+        assertThat(index.recommend(1L, 1)).containsExactly(1L);
+
+        index.markReady();
+        assertThat(index.recommend(1L, 1)).containsExactly(8L);
+        assertThat(index.recommend(2L, 1)).containsExactly(5L);
+    }
+
+    private static RecommendationIndex newIndex(BookRepository.BookCategoryRow... changed) {
+        List<BookRepository.BookCategoryRow> books = new ArrayList<>(BOOKS);
+        for (BookRepository.BookCategoryRow book : changed) {
+            books.removeIf(b -> b.getId().equals(book.getId()));
+            books.add(book);
+        }
+        RecommendationIndex index = new RecommendationIndex(Duration.ofMinutes(1));
+        index.loadBooks(books);
+        return index;
+    }
+
+    private static byte[] snapshot(RecommendationIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeSnapshot(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream read(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static ReadingHistory history(long id, long userId, long bookId, ReadingHistory.Status status) {
+        User user = User.builder().id(userId).build();
+        Book book = Book.builder().id(bookId).build();
+        return new ReadingHistory(id, user, book, status, T0);
+    }
+
+    private static BookRepository.BookCategoryRow book(long id, Category category) {
+        return new BookRepository.BookCategoryRow() {
+            public Long getId() { return id; }
+            public Category getCategory() { return category; }
+        };
+    }
+
+    private static ReadingHistoryRepository.HistoryRow row(long id, long userId, long bookId, ReadingHistory.Status status,
+                                                           LocalDateTime timestamp) {
+        return new ReadingHistoryRepository.HistoryRow() {
+            public Long getId() { return id; }
+            public Long getUserId() { return userId; }
+            public Long getBookId() { return bookId; }
+            public ReadingHistory.Status getStatus() { return status; }
+            public LocalDateTime getTimestamp() { return timestamp; }
+        };
+    }
+}
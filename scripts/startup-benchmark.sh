@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request (JVM launch until the first successful HTTP response) for
+# LibraryApplication (java/) and the usage Application (java-Q2/).
+#
+#   scripts/startup-benchmark.sh <library|usage> [default|fast] [runs]
+#
+# "default" starts the repackaged jar from target/; "fast" starts the AOT/AppCDS layout produced by
+# `mvn -Pfast-startup package` (target/fast-startup/application for the library, target/application for usage). Build the module first. The usage app needs its MySQL database
+# (see java-Q2/src/main/resources/application.properties); extra JVM/app options can be passed
+# through JAVA_OPTS and APP_ARGS.
+set -euo pipefail
+
+app="${1:?usage: $0 <library|usage> [default|fast] [runs]}"
+mode="${2:-default}"
+runs="${3:-5}"
+port="${PORT:-18080}"
+root="$(cd "$(dirname "$0")/.." && pwd)"
+
+case "$app" in
+  library)
+    dir="$root/java/target"
+    fast_dir="$dir/fast-startup"
+    jar="library-management-system-0.1.0.jar"
+    probe=(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port/api/books")
+    ;;
+  usage)
+    dir="$root/java-Q2/target"
+    fast_dir="$dir"
+    jar="usage-0.0.1-SNAPSHOT.jar"
+    probe=(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' -d '{}' "http://localhost:$port/api/convert")
+    ;;
+  *) echo "unknown app: $app" >&2; exit 1 ;;
+esac
+
+launch() {
+  if [[ "$mode" == "fast" ]]; then
+    cd "$fast_dir/application"
+    if [[ "$app" == "library" ]]; then
+      exec java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true ${JAVA_OPTS:-} \
+        -jar "$jar" --server.port="$port" --spring.profiles.active=fast-startup ${APP_ARGS:-}
+    else
+      exec java -XX:SharedArchiveFile=application.jsa ${JAVA_OPTS:-} \
+        -jar "${jar%.jar}-application.jar" --server.port="$port" --spring.profiles.active=fast-startup ${APP_ARGS:-}
+    fi
+  else
+    exec java ${JAVA_OPTS:-} -jar "$dir/$jar" --server.port="$port" ${APP_ARGS:-}
+  fi
+}
+
+results=()
+for ((i = 1; i <= runs; i++)); do
+  start=$(date +%s%N)
+  (launch) >/dev/null 2>&1 &
+  pid=$!
+  until [[ "$("${probe[@]}" 2>/dev/null || true)" == 2* ]]; do
+    if ! kill -0 "$pid" 2>/dev/null; then echo "$app exited before serving a request" >&2; exit 1; fi
+    sleep 0.01
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  results+=("$elapsed")
+  echo "run $i: ${elapsed} ms"
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+echo "$app ($mode) time-to-first-request over $runs runs: min ${sorted[0]} ms, median ${sorted[$((runs / 2))]} ms, max ${sorted[$((runs - 1))]} ms"